@@ -4,17 +4,18 @@ import java.time.Instant;
 import java.util.stream.Stream;
 
 import com.amazonaws.services.lambda.runtime.Context;
-import com.amazonaws.services.lambda.runtime.RequestHandler;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
 import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import io.quarkus.amazon.dynamodb.enhanced.runtime.NamedDynamoDbTable;
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import me.kenfinnigan.lambda.dto.SignupRequest;
 import me.kenfinnigan.lambda.dto.SignupResponse;
+import me.kenfinnigan.lambda.hedge.HedgedQueryExecutor;
 import me.kenfinnigan.lambda.model.Customer;
+import me.kenfinnigan.lambda.ratelimit.SignupRateLimiter;
+import me.kenfinnigan.lambda.route.CustomerOperation;
 import me.kenfinnigan.lambda.util.EmailUtil;
 import me.kenfinnigan.lambda.util.TokenUtil;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
@@ -23,23 +24,46 @@ import software.amazon.awssdk.enhanced.dynamodb.model.Page;
 import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
 
 @Named("createCustomer")
-public class CreateCustomer implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
+public class CreateCustomer implements CustomerOperation {
+  public static final String METHOD = "POST";
+  public static final String PATH = "/customers";
+
   @Inject
   ObjectMapper objectMapper;
 
   @Inject
-  @NamedDynamoDbTable(Customer.CUSTOMER_TABLE_NAME)
   DynamoDbTable<Customer> customerTable;
 
+  @Inject
+  SignupRateLimiter rateLimiter;
+
+  @Inject
+  HedgedQueryExecutor hedgedQueryExecutor;
+
+  @Override
+  public String method() {
+    return METHOD;
+  }
+
+  @Override
+  public String path() {
+    return PATH;
+  }
+
   @Override
   public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent requestEvent, Context context) {
-    if (!requestEvent.getRequestContext().getHttp().getMethod().equals("POST")) {
+    if (!requestEvent.getRequestContext().getHttp().getMethod().equals(METHOD)) {
       return APIGatewayV2HTTPResponse.builder()
           .withStatusCode(405)
           .withBody("Method Not Allowed")
           .build();
     }
 
+    // Throttle floods before any parsing or DynamoDB work
+    if (!rateLimiter.tryAcquireForIp(requestEvent.getRequestContext().getHttp().getSourceIp())) {
+      return tooManyRequests();
+    }
+
     try {
       String body = requestEvent.getBody();
       if (null == body || body.isEmpty()) {
@@ -65,6 +89,10 @@ public class CreateCustomer implements RequestHandler<APIGatewayV2HTTPEvent, API
             .build();
       }
 
+      if (!rateLimiter.tryAcquireForDevice(request.getDeviceId())) {
+        return tooManyRequests();
+      }
+
       // Check for valid email
       if (!EmailUtil.isValidEmail(request.getEmail())) {
         return APIGatewayV2HTTPResponse.builder()
@@ -116,6 +144,13 @@ public class CreateCustomer implements RequestHandler<APIGatewayV2HTTPEvent, API
     }
   }
 
+  private APIGatewayV2HTTPResponse tooManyRequests() {
+    return APIGatewayV2HTTPResponse.builder()
+        .withStatusCode(429)
+        .withBody("Too Many Requests")
+        .build();
+  }
+
   public Customer createCustomer(Customer customer) {
     if (null == customer.getCustomerId()) {
       customer.setCustomerId(TokenUtil.generateCustomerId());
@@ -133,7 +168,9 @@ public class CreateCustomer implements RequestHandler<APIGatewayV2HTTPEvent, API
 
   public Customer getCustomerByEmail(String email) {
     QueryConditional queryConditional = QueryConditional.keyEqualTo(Key.builder().partitionValue(email).build());
-    return getItemFromStream(customerTable.index(Customer.EMAIL_INDEX).query(queryConditional).stream());
+    // Idempotent read, so it is safe to hedge when the index responds slowly
+    return hedgedQueryExecutor.execute(
+        () -> getItemFromStream(customerTable.index(Customer.EMAIL_INDEX).query(queryConditional).stream()));
   }
 
   private <T> T getItemFromStream(Stream<Page<T>> items) {
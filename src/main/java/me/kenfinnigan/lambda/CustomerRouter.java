@@ -0,0 +1,82 @@
+package me.kenfinnigan.lambda;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import me.kenfinnigan.lambda.route.CustomerOperation;
+import me.kenfinnigan.lambda.route.RouteTable;
+
+// Serves every customer endpoint from one function, so they share a warm container pool
+@Named("customerRouter")
+public class CustomerRouter implements RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
+  @Inject
+  @Any
+  Instance<CustomerOperation> operations;
+
+  RouteTable routes;
+
+  @PostConstruct
+  void init() {
+    routes = new RouteTable(operations);
+  }
+
+  @Override
+  public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent requestEvent, Context context) {
+    APIGatewayV2HTTPEvent.RequestContext requestContext = requestEvent.getRequestContext();
+    String path = stripStage(
+        null != requestEvent.getRawPath() ? requestEvent.getRawPath() : requestContext.getHttp().getPath(),
+        requestContext.getStage());
+
+    RouteTable.Route route = routes.resolve(requestContext.getHttp().getMethod(), requestEvent.getRouteKey(), path);
+    if (null == route) {
+      if (routes.hasPath(path)) {
+        return APIGatewayV2HTTPResponse.builder()
+            .withStatusCode(405)
+            .withBody("Method Not Allowed")
+            .build();
+      }
+
+      return APIGatewayV2HTTPResponse.builder()
+          .withStatusCode(404)
+          .withBody("Not Found")
+          .build();
+    }
+
+    // Catch-all routes get no pathParameters from API Gateway, so hand over the ones we matched
+    if (!route.pathParameters().isEmpty()) {
+      Map<String, String> pathParameters = new HashMap<>(route.pathParameters());
+      if (null != requestEvent.getPathParameters()) {
+        pathParameters.putAll(requestEvent.getPathParameters());
+      }
+      requestEvent.setPathParameters(pathParameters);
+    }
+
+    return route.operation().handleRequest(requestEvent, context);
+  }
+
+  // Paths on a named stage are prefixed with it, e.g. /prod/customers
+  static String stripStage(String path, String stage) {
+    if (null == path || null == stage || stage.isEmpty() || "$default".equals(stage)) {
+      return path;
+    }
+
+    String prefix = "/" + stage;
+    if (path.equals(prefix)) {
+      return "/";
+    }
+    if (path.startsWith(prefix + "/")) {
+      return path.substring(prefix.length());
+    }
+    return path;
+  }
+}
@@ -0,0 +1,184 @@
+package me.kenfinnigan.lambda;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import me.kenfinnigan.lambda.dto.MigrationResult;
+import me.kenfinnigan.lambda.model.Customer;
+import me.kenfinnigan.lambda.model.CustomerTableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+// Rewrites legacy Customer items into the compact encoding
+@Named("migrateCustomers")
+public class MigrateCustomers implements RequestHandler<Map<String, Object>, MigrationResult> {
+  public static final String EXCLUSIVE_START_KEY = "exclusiveStartKey";
+  public static final String SEGMENT = "segment";
+  public static final String TOTAL_SEGMENTS = "totalSegments";
+
+  @Inject
+  DynamoDbClient dynamoDbClient;
+
+  @Inject
+  CustomerTableSchema customerTableSchema;
+
+  @ConfigProperty(name = "customer.migration.min-remaining-ms", defaultValue = "30000")
+  long minRemainingMillis;
+
+  @ConfigProperty(name = "customer.migration.min-remaining-fraction", defaultValue = "0.1")
+  double minRemainingFraction;
+
+  @Override
+  public MigrationResult handleRequest(Map<String, Object> input, Context context) {
+    Map<String, AttributeValue> exclusiveStartKey = null;
+    Integer segment = null;
+    Integer totalSegments = null;
+
+    if (null != input) {
+      if (input.get(EXCLUSIVE_START_KEY) instanceof Map<?, ?> startKey && !startKey.isEmpty()) {
+        exclusiveStartKey = new HashMap<>();
+        for (Map.Entry<?, ?> entry : startKey.entrySet()) {
+          exclusiveStartKey.put(entry.getKey().toString(), AttributeValue.fromS(entry.getValue().toString()));
+        }
+      }
+      if (input.get(SEGMENT) instanceof Number number) {
+        segment = number.intValue();
+      }
+      if (input.get(TOTAL_SEGMENTS) instanceof Number number) {
+        totalSegments = number.intValue();
+      }
+    }
+
+    return migrate(exclusiveStartKey, segment, totalSegments, context);
+  }
+
+  // Stops before the Lambda timeout, the returned lastEvaluatedKey resumes the next invocation
+  public MigrationResult migrate(Map<String, AttributeValue> exclusiveStartKey, Integer segment,
+      Integer totalSegments, Context context) {
+    long scanned = 0;
+    long migrated = 0;
+    long skipped = 0;
+
+    Map<String, AttributeValue> resumeKey = exclusiveStartKey;
+
+    // A fixed reserve would exceed short timeouts such as the 3s default, so it shrinks with the time available
+    long reserveMillis = null == context ? 0
+        : Math.min(minRemainingMillis, (long) (context.getRemainingTimeInMillis() * minRemainingFraction));
+
+    do {
+      if (outOfTime(context, reserveMillis)) {
+        return incomplete(scanned, migrated, skipped, exclusiveStartKey, resumeKey);
+      }
+
+      ScanResponse page = dynamoDbClient.scan(ScanRequest.builder()
+          .tableName(Customer.CUSTOMER_TABLE_NAME)
+          .filterExpression("attribute_exists(#device) OR attribute_exists(#created) OR attribute_exists(#updated)")
+          .expressionAttributeNames(Map.of(
+              "#device", CustomerTableSchema.LEGACY_DEVICE_ID,
+              "#created", CustomerTableSchema.LEGACY_CREATED_AT,
+              "#updated", CustomerTableSchema.LEGACY_UPDATED_AT))
+          .exclusiveStartKey(resumeKey)
+          .segment(segment)
+          .totalSegments(totalSegments)
+          .build());
+
+      for (Map<String, AttributeValue> item : page.items()) {
+        if (outOfTime(context, reserveMillis)) {
+          return incomplete(scanned, migrated, skipped, exclusiveStartKey, resumeKey);
+        }
+
+        scanned++;
+        if (migrateItem(item)) {
+          migrated++;
+        } else {
+          skipped++;
+        }
+        resumeKey = Map.of(Customer.PARTITION_KEY, item.get(Customer.PARTITION_KEY));
+      }
+
+      resumeKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+    } while (null != resumeKey);
+
+    return result(scanned, migrated, skipped, null).setComplete(true);
+  }
+
+  boolean migrateItem(Map<String, AttributeValue> item) {
+    if (!CustomerTableSchema.isLegacyItem(item)) {
+      return false;
+    }
+
+    Customer customer = customerTableSchema.mapToItem(item);
+
+    try {
+      dynamoDbClient.putItem(compactPut(customer, item.get(CustomerTableSchema.LEGACY_UPDATED_AT)));
+      return true;
+    } catch (ConditionalCheckFailedException e) {
+      // Item was deleted or updated since it was scanned
+      return false;
+    }
+  }
+
+  private boolean outOfTime(Context context, long reserveMillis) {
+    return null != context && context.getRemainingTimeInMillis() < reserveMillis;
+  }
+
+  private MigrationResult incomplete(long scanned, long migrated, long skipped,
+      Map<String, AttributeValue> exclusiveStartKey, Map<String, AttributeValue> resumeKey) {
+    // Returning the same start key would have a driver retry forever without getting anywhere
+    if (0 == scanned && Objects.equals(exclusiveStartKey, resumeKey)) {
+      throw new IllegalStateException("Not enough time to migrate any customers, "
+          + "increase the function timeout or lower customer.migration.min-remaining-ms");
+    }
+
+    return result(scanned, migrated, skipped, resumeKey);
+  }
+
+  private MigrationResult result(long scanned, long migrated, long skipped, Map<String, AttributeValue> resumeKey) {
+    Map<String, String> lastEvaluatedKey = null;
+    if (null != resumeKey) {
+      lastEvaluatedKey = new HashMap<>();
+      for (Map.Entry<String, AttributeValue> entry : resumeKey.entrySet()) {
+        lastEvaluatedKey.put(entry.getKey(), entry.getValue().s());
+      }
+    }
+
+    return new MigrationResult()
+        .setScanned(scanned)
+        .setMigrated(migrated)
+        .setSkipped(skipped)
+        .setLastEvaluatedKey(lastEvaluatedKey);
+  }
+
+  private PutItemRequest compactPut(Customer customer, AttributeValue legacyUpdatedAt) {
+    Map<String, String> names = new HashMap<>();
+    names.put("#pk", Customer.PARTITION_KEY);
+    String condition = "attribute_exists(#pk)";
+
+    Map<String, AttributeValue> values = null;
+    if (null != legacyUpdatedAt) {
+      names.put("#updated", CustomerTableSchema.LEGACY_UPDATED_AT);
+      values = Map.of(":updated", legacyUpdatedAt);
+      condition += " AND #updated = :updated";
+    }
+
+    return PutItemRequest.builder()
+        .tableName(Customer.CUSTOMER_TABLE_NAME)
+        .item(customerTableSchema.compactItemToMap(customer, true))
+        .conditionExpression(condition)
+        .expressionAttributeNames(names)
+        .expressionAttributeValues(values)
+        .build();
+  }
+}
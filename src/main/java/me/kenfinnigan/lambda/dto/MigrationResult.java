@@ -0,0 +1,57 @@
+package me.kenfinnigan.lambda.dto;
+
+import java.util.Map;
+
+public class MigrationResult {
+  private long scanned;
+  private long migrated;
+  private long skipped;
+  private boolean complete;
+  private Map<String, String> lastEvaluatedKey;
+
+  public long getScanned() {
+    return scanned;
+  }
+
+  public MigrationResult setScanned(long scanned) {
+    this.scanned = scanned;
+    return this;
+  }
+
+  public long getMigrated() {
+    return migrated;
+  }
+
+  public MigrationResult setMigrated(long migrated) {
+    this.migrated = migrated;
+    return this;
+  }
+
+  public long getSkipped() {
+    return skipped;
+  }
+
+  public MigrationResult setSkipped(long skipped) {
+    this.skipped = skipped;
+    return this;
+  }
+
+  public boolean isComplete() {
+    return complete;
+  }
+
+  public MigrationResult setComplete(boolean complete) {
+    this.complete = complete;
+    return this;
+  }
+
+  public Map<String, String> getLastEvaluatedKey() {
+    return lastEvaluatedKey;
+  }
+
+  public MigrationResult setLastEvaluatedKey(Map<String, String> lastEvaluatedKey) {
+    this.lastEvaluatedKey = lastEvaluatedKey;
+    return this;
+  }
+
+}
@@ -0,0 +1,191 @@
+package me.kenfinnigan.lambda.hedge;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+@ApplicationScoped
+public class HedgedQueryExecutor {
+  private static final Logger LOG = Logger.getLogger(HedgedQueryExecutor.class);
+
+  // Hedge budget is kept in millionths of a hedge so it can be updated atomically as a long
+  private static final long HEDGE = 1_000_000;
+
+  @ConfigProperty(name = "dynamodb.hedging.enabled", defaultValue = "false")
+  boolean enabled;
+
+  @ConfigProperty(name = "dynamodb.hedging.percentile", defaultValue = "0.9")
+  double percentile;
+
+  @ConfigProperty(name = "dynamodb.hedging.min-delay-ms", defaultValue = "5")
+  long minDelayMillis;
+
+  @ConfigProperty(name = "dynamodb.hedging.max-hedge-ratio", defaultValue = "0.05")
+  double maxHedgeRatio;
+
+  @ConfigProperty(name = "dynamodb.hedging.max-hedge-burst", defaultValue = "10")
+  long maxHedgeBurst;
+
+  @ConfigProperty(name = "dynamodb.hedging.min-samples", defaultValue = "20")
+  int minSamples;
+
+  @ConfigProperty(name = "dynamodb.hedging.summary-interval-seconds", defaultValue = "60")
+  long summaryIntervalSeconds;
+
+  final LatencyTracker latencies = new LatencyTracker(256);
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder hedgesFired = new LongAdder();
+  private final LongAdder hedgesWon = new LongAdder();
+  private final AtomicLong hedgeBudget = new AtomicLong();
+  private final AtomicLong lastSummary = new AtomicLong(System.nanoTime());
+
+  public <T> T execute(Supplier<T> query) {
+    requests.increment();
+    earnHedgeBudget();
+
+    // Until there is a latency baseline there is nothing to hedge against
+    if (!enabled || latencies.count() < minSamples) {
+      long start = System.nanoTime();
+      T value = query.get();
+      latencies.record(System.nanoTime() - start);
+      return value;
+    }
+
+    Race<T> race = new Race<>();
+    long start = System.nanoTime();
+    Future<?> primary = executor.submit(() -> attempt(query, race, false));
+    Future<?> hedge = null;
+
+    try {
+      try {
+        Win<T> win = race.result.get(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        latencies.record(win.nanos());
+        return win.value();
+      } catch (TimeoutException e) {
+        // Primary is slow, fall through and consider a hedge
+      }
+
+      if (!race.result.isDone() && allowHedge()) {
+        race.pending.incrementAndGet();
+        hedgesFired.increment();
+        hedge = executor.submit(() -> attempt(query, race, true));
+        LOG.debug("Hedged query fired");
+      }
+
+      Win<T> win = race.result.get();
+      latencies.record(win.nanos());
+      if (win.hedge()) {
+        // The losing primary took at least this long, leaving it out would drag the percentile down
+        latencies.record(System.nanoTime() - start);
+        LOG.debug("Hedged query won");
+      }
+      return win.value();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException re) {
+        throw re;
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } finally {
+      primary.cancel(true);
+      if (null != hedge) {
+        hedge.cancel(true);
+      }
+      logSummary();
+    }
+  }
+
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  public long getHedgesFired() {
+    return hedgesFired.sum();
+  }
+
+  public long getHedgesWon() {
+    return hedgesWon.sum();
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  private <T> void attempt(Supplier<T> query, Race<T> race, boolean isHedge) {
+    long start = System.nanoTime();
+    try {
+      T value = query.get();
+      if (race.result.complete(new Win<>(value, isHedge, System.nanoTime() - start)) && isHedge) {
+        hedgesWon.increment();
+      }
+    } catch (Throwable t) {
+      // Only fail once every attempt in flight has failed
+      if (race.pending.decrementAndGet() == 0) {
+        race.result.completeExceptionally(t);
+      }
+    }
+  }
+
+  // Lambda freezes idle containers, so the summary is logged from the request path rather than a timer
+  private void logSummary() {
+    long now = System.nanoTime();
+    long last = lastSummary.get();
+    if (now - last < TimeUnit.SECONDS.toNanos(summaryIntervalSeconds) || !lastSummary.compareAndSet(last, now)) {
+      return;
+    }
+
+    LOG.infof("Hedged queries: requests=%d hedgesFired=%d hedgesWon=%d p%.0f=%dus",
+        requests.sum(), hedgesFired.sum(), hedgesWon.sum(), percentile * 100,
+        TimeUnit.NANOSECONDS.toMicros(latencies.percentile(percentile)));
+  }
+
+  private long hedgeDelayNanos() {
+    return Math.max(TimeUnit.MILLISECONDS.toNanos(minDelayMillis), latencies.percentile(percentile));
+  }
+
+  // Each request earns a fraction of a hedge, capped so budget unused while latency is healthy
+  // cannot be spent all at once when DynamoDB slows down
+  private void earnHedgeBudget() {
+    long earned = (long) (maxHedgeRatio * HEDGE);
+    long cap = maxHedgeBurst * HEDGE;
+    hedgeBudget.accumulateAndGet(earned, (budget, e) -> Math.min(cap, budget + e));
+  }
+
+  private boolean allowHedge() {
+    long budget;
+    do {
+      budget = hedgeBudget.get();
+      if (budget < HEDGE) {
+        return false;
+      }
+    } while (!hedgeBudget.compareAndSet(budget, budget - HEDGE));
+    return true;
+  }
+
+  private static final class Race<T> {
+    private final CompletableFuture<Win<T>> result = new CompletableFuture<>();
+    private final AtomicInteger pending = new AtomicInteger(1);
+  }
+
+  private record Win<T>(T value, boolean hedge, long nanos) {
+  }
+}
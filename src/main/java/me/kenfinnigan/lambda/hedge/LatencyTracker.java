@@ -0,0 +1,39 @@
+package me.kenfinnigan.lambda.hedge;
+
+import java.util.Arrays;
+
+public class LatencyTracker {
+  private final long[] samples;
+  private int next;
+  private int count;
+
+  public LatencyTracker(int size) {
+    this.samples = new long[size];
+  }
+
+  public synchronized void record(long nanos) {
+    samples[next] = nanos;
+    next = (next + 1) % samples.length;
+    if (count < samples.length) {
+      count++;
+    }
+  }
+
+  public synchronized int count() {
+    return count;
+  }
+
+  public long percentile(double percentile) {
+    long[] sorted;
+    synchronized (this) {
+      if (count == 0) {
+        return 0;
+      }
+      sorted = Arrays.copyOf(samples, count);
+    }
+
+    Arrays.sort(sorted);
+    int index = (int) Math.ceil(percentile * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+  }
+}
@@ -0,0 +1,27 @@
+package me.kenfinnigan.lambda.model;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Produces;
+import jakarta.inject.Singleton;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+
+@ApplicationScoped
+public class CustomerTableProducer {
+  @ConfigProperty(name = "customer.encoding.compact", defaultValue = "false")
+  boolean compact;
+
+  @Produces
+  @Singleton
+  CustomerTableSchema customerTableSchema() {
+    return new CustomerTableSchema(compact);
+  }
+
+  @Produces
+  @Singleton
+  DynamoDbTable<Customer> customerTable(DynamoDbEnhancedClient enhancedClient, CustomerTableSchema tableSchema) {
+    return enhancedClient.table(Customer.CUSTOMER_TABLE_NAME, tableSchema);
+  }
+}
@@ -0,0 +1,154 @@
+package me.kenfinnigan.lambda.model;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.enhanced.dynamodb.TableMetadata;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+// Reads both legacy and compact Customer items, and writes whichever encoding is enabled.
+// Key attributes (customer_id, email, token) keep their names and types in both encodings
+// because the table and its indexes are defined on them.
+public class CustomerTableSchema implements TableSchema<Customer> {
+  public static final String LEGACY_DEVICE_ID = "device_id";
+  public static final String LEGACY_CREATED_AT = "createdAt";
+  public static final String LEGACY_UPDATED_AT = "updatedAt";
+
+  public static final String COMPACT_DEVICE_ID = "d";
+  public static final String COMPACT_CREATED_AT = "c";
+  public static final String COMPACT_UPDATED_AT = "u";
+
+  private static final String EMAIL = "email";
+  private static final String TOKEN = "token";
+
+  private static final List<String> COMPACT_ATTRIBUTES = List.of(
+      Customer.PARTITION_KEY, EMAIL, TOKEN, COMPACT_DEVICE_ID, COMPACT_CREATED_AT, COMPACT_UPDATED_AT);
+
+  private final TableSchema<Customer> legacySchema = TableSchema.fromBean(Customer.class);
+  private final EpochMillisInstantConverter instantConverter = new EpochMillisInstantConverter();
+  private final boolean compact;
+
+  public CustomerTableSchema(boolean compact) {
+    this.compact = compact;
+  }
+
+  public boolean isCompact() {
+    return compact;
+  }
+
+  public static boolean isLegacyItem(Map<String, AttributeValue> item) {
+    return item.containsKey(LEGACY_DEVICE_ID)
+        || item.containsKey(LEGACY_CREATED_AT)
+        || item.containsKey(LEGACY_UPDATED_AT);
+  }
+
+  @Override
+  public Customer mapToItem(Map<String, AttributeValue> attributeMap) {
+    Customer customer = new Customer();
+    customer.setCustomerId(stringValue(attributeMap, Customer.PARTITION_KEY, Customer.PARTITION_KEY));
+    customer.setEmail(stringValue(attributeMap, EMAIL, EMAIL));
+    customer.setToken(stringValue(attributeMap, TOKEN, TOKEN));
+    customer.setDeviceId(stringValue(attributeMap, COMPACT_DEVICE_ID, LEGACY_DEVICE_ID));
+    customer.setCreatedAt(instantValue(attributeMap, COMPACT_CREATED_AT, LEGACY_CREATED_AT));
+    customer.setUpdatedAt(instantValue(attributeMap, COMPACT_UPDATED_AT, LEGACY_UPDATED_AT));
+    return customer;
+  }
+
+  @Override
+  public Map<String, AttributeValue> itemToMap(Customer item, boolean ignoreNulls) {
+    return compact ? compactItemToMap(item, ignoreNulls) : legacySchema.itemToMap(item, ignoreNulls);
+  }
+
+  @Override
+  public Map<String, AttributeValue> itemToMap(Customer item, Collection<String> attributes) {
+    Map<String, AttributeValue> all = itemToMap(item, false);
+    Map<String, AttributeValue> result = new HashMap<>();
+    for (String attribute : attributes) {
+      AttributeValue value = all.get(attribute);
+      if (null != value) {
+        result.put(attribute, value);
+      }
+    }
+    return result;
+  }
+
+  public Map<String, AttributeValue> compactItemToMap(Customer item, boolean ignoreNulls) {
+    Map<String, AttributeValue> map = new HashMap<>();
+    putString(map, Customer.PARTITION_KEY, item.getCustomerId(), ignoreNulls);
+    putString(map, EMAIL, item.getEmail(), ignoreNulls);
+    putString(map, TOKEN, item.getToken(), ignoreNulls);
+    putString(map, COMPACT_DEVICE_ID, item.getDeviceId(), ignoreNulls);
+    putInstant(map, COMPACT_CREATED_AT, item.getCreatedAt(), ignoreNulls);
+    putInstant(map, COMPACT_UPDATED_AT, item.getUpdatedAt(), ignoreNulls);
+    return map;
+  }
+
+  @Override
+  public AttributeValue attributeValue(Customer item, String attributeName) {
+    return switch (attributeName) {
+      case COMPACT_DEVICE_ID, COMPACT_CREATED_AT, COMPACT_UPDATED_AT ->
+        compactItemToMap(item, false).get(attributeName);
+      default -> legacySchema.attributeValue(item, attributeName);
+    };
+  }
+
+  @Override
+  public EnhancedType<Customer> itemType() {
+    return legacySchema.itemType();
+  }
+
+  @Override
+  public TableMetadata tableMetadata() {
+    return legacySchema.tableMetadata();
+  }
+
+  @Override
+  public List<String> attributeNames() {
+    return compact ? COMPACT_ATTRIBUTES : legacySchema.attributeNames();
+  }
+
+  @Override
+  public boolean isAbstract() {
+    return false;
+  }
+
+  @Override
+  public AttributeConverter<Customer> converterForAttribute(Object key) {
+    return legacySchema.converterForAttribute(key);
+  }
+
+  private String stringValue(Map<String, AttributeValue> map, String compactName, String legacyName) {
+    AttributeValue value = map.containsKey(compactName) ? map.get(compactName) : map.get(legacyName);
+    return null == value ? null : value.s();
+  }
+
+  private Instant instantValue(Map<String, AttributeValue> map, String compactName, String legacyName) {
+    AttributeValue value = map.containsKey(compactName) ? map.get(compactName) : map.get(legacyName);
+    if (null == value || Boolean.TRUE.equals(value.nul())) {
+      return null;
+    }
+    return instantConverter.transformTo(value);
+  }
+
+  private void putString(Map<String, AttributeValue> map, String name, String value, boolean ignoreNulls) {
+    if (null != value) {
+      map.put(name, AttributeValue.fromS(value));
+    } else if (!ignoreNulls) {
+      map.put(name, AttributeValue.fromNul(true));
+    }
+  }
+
+  private void putInstant(Map<String, AttributeValue> map, String name, Instant value, boolean ignoreNulls) {
+    if (null != value) {
+      map.put(name, instantConverter.transformFrom(value));
+    } else if (!ignoreNulls) {
+      map.put(name, AttributeValue.fromNul(true));
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package me.kenfinnigan.lambda.model;
+
+import java.time.Instant;
+
+import software.amazon.awssdk.enhanced.dynamodb.AttributeConverter;
+import software.amazon.awssdk.enhanced.dynamodb.AttributeValueType;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+public class EpochMillisInstantConverter implements AttributeConverter<Instant> {
+
+  @Override
+  public AttributeValue transformFrom(Instant input) {
+    return AttributeValue.fromN(Long.toString(input.toEpochMilli()));
+  }
+
+  @Override
+  public Instant transformTo(AttributeValue input) {
+    if (null != input.n()) {
+      return Instant.ofEpochMilli(Long.parseLong(input.n()));
+    }
+
+    // Legacy items store the enhanced client's default ISO-8601 string
+    if (null != input.s()) {
+      return Instant.parse(input.s());
+    }
+
+    throw new IllegalArgumentException("Unsupported timestamp attribute: " + input);
+  }
+
+  @Override
+  public EnhancedType<Instant> type() {
+    return EnhancedType.of(Instant.class);
+  }
+
+  @Override
+  public AttributeValueType attributeValueType() {
+    return AttributeValueType.N;
+  }
+}
@@ -0,0 +1,206 @@
+package me.kenfinnigan.lambda.ratelimit;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ProvisionedThroughputExceededException;
+import software.amazon.awssdk.services.dynamodb.model.RequestLimitExceededException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+@ApplicationScoped
+public class SignupRateLimiter {
+  public static final String RATE_LIMIT_TABLE_NAME = "signup_rate_limits";
+  public static final String PARTITION_KEY = "limit_key";
+  public static final String HITS_ATTRIBUTE = "hits";
+  public static final String TTL_ATTRIBUTE = "expires_at";
+
+  private static final Logger LOG = Logger.getLogger(SignupRateLimiter.class);
+
+  private static final String DEVICE_SCOPE = "device";
+  private static final String IP_SCOPE = "ip";
+
+  @Inject
+  DynamoDbClient dynamoDbClient;
+
+  @ConfigProperty(name = "signup.rate-limit.enabled", defaultValue = "true")
+  boolean enabled;
+
+  @ConfigProperty(name = "signup.rate-limit.window-seconds", defaultValue = "60")
+  long windowSeconds;
+
+  @ConfigProperty(name = "signup.rate-limit.device.limit", defaultValue = "5")
+  long deviceLimit;
+
+  @ConfigProperty(name = "signup.rate-limit.ip.limit", defaultValue = "50")
+  long ipLimit;
+
+  @ConfigProperty(name = "signup.rate-limit.shared.enabled", defaultValue = "true")
+  boolean sharedEnabled;
+
+  @ConfigProperty(name = "signup.rate-limit.shared.table", defaultValue = RATE_LIMIT_TABLE_NAME)
+  String sharedTable;
+
+  @ConfigProperty(name = "signup.rate-limit.shared.retry-seconds", defaultValue = "30")
+  long sharedRetrySeconds;
+
+  @ConfigProperty(name = "signup.rate-limit.max-tracked-keys", defaultValue = "10000")
+  int maxTrackedKeys;
+
+  // Separate maps so a flood of client chosen device IDs cannot displace blocked IPs
+  private final Buckets deviceBuckets = new Buckets();
+  private final Buckets ipBuckets = new Buckets();
+
+  private volatile long sharedRetryAt = System.nanoTime();
+
+  public boolean tryAcquireForIp(String sourceIp) {
+    return tryAcquire(IP_SCOPE, ipBuckets, sourceIp, ipLimit);
+  }
+
+  public boolean tryAcquireForDevice(String deviceId) {
+    return tryAcquire(DEVICE_SCOPE, deviceBuckets, deviceId, deviceLimit);
+  }
+
+  private boolean tryAcquire(String scope, Buckets buckets, String id, long limit) {
+    if (!enabled || null == id || id.isEmpty()) {
+      return true;
+    }
+
+    // IDs are client supplied, hashing bounds both the memory held per bucket and the counter key size
+    String hashedId = hash(id);
+    String key = scope + "#" + hashedId;
+    long now = System.nanoTime();
+
+    // Local bucket rejects floods hitting this container without any I/O
+    TokenBucket bucket = buckets.get(hashedId, limit, now);
+    if (null != bucket && !bucket.tryConsume(now)) {
+      return false;
+    }
+
+    // While the shared counter is failing, skip it rather than pay a failed round trip per request
+    if (!sharedEnabled || now - sharedRetryAt < 0) {
+      return true;
+    }
+
+    // Shared fixed-window counter enforces the limit across concurrent containers
+    long windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+    long nowMillis = System.currentTimeMillis();
+    long window = nowMillis / windowMillis;
+
+    long hits;
+    try {
+      hits = incrementSharedCounter(key + "#" + window, (window + 2) * windowSeconds);
+    } catch (SdkException e) {
+      if (!isUnavailable(e)) {
+        // Fail open for this request only, a bad request must not switch off the shared limit for everyone
+        LOG.warnf(e, "Shared rate limit counter in table %s rejected the update, using local limits only",
+            sharedTable);
+        return true;
+      }
+
+      // Fail open with only the local buckets, and stop calling the table for a while
+      sharedRetryAt = now + TimeUnit.SECONDS.toNanos(sharedRetrySeconds);
+      LOG.warnf(e, "Shared rate limit counter in table %s unavailable, using local limits only for %ds",
+          sharedTable, sharedRetrySeconds);
+      return true;
+    }
+
+    if (hits > limit) {
+      if (null != bucket) {
+        long remainingMillis = (window + 1) * windowMillis - nowMillis;
+        bucket.blockUntil(now + TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+      }
+      return false;
+    }
+
+    return true;
+  }
+
+  private long incrementSharedCounter(String counterKey, long expiresAt) {
+    UpdateItemResponse response = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+        .tableName(sharedTable)
+        .key(Map.of(PARTITION_KEY, AttributeValue.fromS(counterKey)))
+        .updateExpression("ADD #hits :one SET #ttl = if_not_exists(#ttl, :ttl)")
+        .expressionAttributeNames(Map.of(
+            "#hits", HITS_ATTRIBUTE,
+            "#ttl", TTL_ATTRIBUTE))
+        .expressionAttributeValues(Map.of(
+            ":one", AttributeValue.fromN("1"),
+            ":ttl", AttributeValue.fromN(Long.toString(expiresAt))))
+        .returnValues(ReturnValue.UPDATED_NEW)
+        .build());
+
+    return Long.parseLong(response.attributes().get(HITS_ATTRIBUTE).n());
+  }
+
+  // Throttling, a missing table, server errors and network failures, but not validation errors
+  private static boolean isUnavailable(SdkException e) {
+    if (e instanceof ResourceNotFoundException
+        || e instanceof ProvisionedThroughputExceededException
+        || e instanceof RequestLimitExceededException) {
+      return true;
+    }
+    if (e instanceof SdkServiceException serviceException) {
+      return serviceException.isThrottlingException() || serviceException.statusCode() >= 500;
+    }
+    return e instanceof SdkClientException;
+  }
+
+  private static String hash(String id) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(id.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 not available", e);
+    }
+  }
+
+  private final class Buckets {
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private volatile long lastSweep = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+
+    // Returns null when the map is full of active buckets, the key then relies on the shared counter
+    TokenBucket get(String id, long limit, long now) {
+      TokenBucket bucket = buckets.get(id);
+      if (null != bucket) {
+        return bucket;
+      }
+
+      if (buckets.size() >= maxTrackedKeys) {
+        sweep(now);
+        if (buckets.size() >= maxTrackedKeys) {
+          return null;
+        }
+      }
+
+      return buckets.computeIfAbsent(id,
+          k -> new TokenBucket(limit, limit, TimeUnit.SECONDS.toNanos(windowSeconds), now));
+    }
+
+    // Evicts only buckets that have refilled and are not blocked, at most once a second
+    private void sweep(long now) {
+      if (now - lastSweep < TimeUnit.SECONDS.toNanos(1)) {
+        return;
+      }
+      lastSweep = now;
+      buckets.values().removeIf(bucket -> bucket.isIdle(now));
+    }
+  }
+}
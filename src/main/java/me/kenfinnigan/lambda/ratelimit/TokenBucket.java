@@ -0,0 +1,68 @@
+package me.kenfinnigan.lambda.ratelimit;
+
+public class TokenBucket {
+  private final long capacity;
+  private final double tokensPerNano;
+
+  private double tokens;
+  private long lastRefill;
+  private boolean blocked;
+  private long blockedUntil;
+
+  public TokenBucket(long capacity, long refillPerWindow, long windowNanos, long now) {
+    this.capacity = capacity;
+    this.tokensPerNano = (double) refillPerWindow / windowNanos;
+    this.tokens = capacity;
+    this.lastRefill = now;
+  }
+
+  public synchronized boolean tryConsume(long now) {
+    if (isBlocked(now)) {
+      return false;
+    }
+
+    refill(now);
+    if (tokens < 1) {
+      return false;
+    }
+
+    tokens -= 1;
+    return true;
+  }
+
+  // A full, unblocked bucket behaves exactly like a new one, so it is safe to evict
+  public synchronized boolean isIdle(long now) {
+    if (isBlocked(now)) {
+      return false;
+    }
+
+    refill(now);
+    return tokens >= capacity;
+  }
+
+  // Called when the shared counter says the key is over its limit, so later requests
+  // in this container are rejected without another round trip to DynamoDB
+  public synchronized void blockUntil(long until) {
+    if (!blocked || until - blockedUntil > 0) {
+      blockedUntil = until;
+    }
+    blocked = true;
+    tokens = 0;
+  }
+
+  // nanoTime values can be negative or wrap, so only their difference is meaningful
+  private boolean isBlocked(long now) {
+    if (blocked && now - blockedUntil >= 0) {
+      blocked = false;
+    }
+    return blocked;
+  }
+
+  private void refill(long now) {
+    long elapsed = now - lastRefill;
+    if (elapsed > 0) {
+      tokens = Math.min(capacity, tokens + elapsed * tokensPerNano);
+      lastRefill = now;
+    }
+  }
+}
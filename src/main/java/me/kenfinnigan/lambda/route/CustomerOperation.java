@@ -0,0 +1,13 @@
+package me.kenfinnigan.lambda.route;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+
+// A customer endpoint served by CustomerRouter, discovered as a CDI bean
+public interface CustomerOperation extends RequestHandler<APIGatewayV2HTTPEvent, APIGatewayV2HTTPResponse> {
+  String method();
+
+  // Path template in API Gateway route syntax, e.g. /customers/{customerId}
+  String path();
+}
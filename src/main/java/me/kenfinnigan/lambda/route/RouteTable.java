@@ -0,0 +1,159 @@
+package me.kenfinnigan.lambda.route;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RouteTable {
+  // Keyed the same way as API Gateway's routeKey, e.g. "POST /customers"
+  private final Map<String, CustomerOperation> byRouteKey = new HashMap<>();
+  private final Map<String, Map<String, CustomerOperation>> staticPaths = new HashMap<>();
+  private final List<Template> templates = new ArrayList<>();
+
+  public RouteTable(Iterable<CustomerOperation> operations) {
+    for (CustomerOperation operation : operations) {
+      String routeKey = operation.method() + " " + operation.path();
+      if (null != byRouteKey.putIfAbsent(routeKey, operation)) {
+        throw new IllegalStateException("Duplicate route: " + routeKey);
+      }
+
+      if (operation.path().contains("{")) {
+        templateFor(operation.path()).operations.put(operation.method(), operation);
+      } else {
+        staticPaths.computeIfAbsent(operation.path(), p -> new HashMap<>()).put(operation.method(), operation);
+      }
+    }
+
+    // Most specific first, like API Gateway, rather than in CDI's undefined iteration order
+    templates.sort(Comparator.comparingInt(Template::parameterCount).thenComparing(t -> t.path));
+  }
+
+  // Path parameters are only captured on a path match, API Gateway already sets them for a routeKey match
+  public record Route(CustomerOperation operation, Map<String, String> pathParameters) {
+  }
+
+  public Route resolve(String method, String routeKey, String path) {
+    if (null != routeKey) {
+      CustomerOperation operation = byRouteKey.get(routeKey);
+      if (null != operation) {
+        return new Route(operation, Map.of());
+      }
+    }
+
+    // Catch-all routes such as $default only give us the path
+    if (null == path) {
+      return null;
+    }
+
+    // A matching path without the method falls through to less specific paths that may have it
+    Map<String, CustomerOperation> operations = staticPaths.get(path);
+    if (null != operations && operations.containsKey(method)) {
+      return new Route(operations.get(method), Map.of());
+    }
+
+    String[] segments = split(path);
+    for (Template template : templates) {
+      CustomerOperation operation = template.operations.get(method);
+      if (null == operation) {
+        continue;
+      }
+
+      Map<String, String> pathParameters = template.match(segments);
+      if (null != pathParameters) {
+        return new Route(operation, pathParameters);
+      }
+    }
+
+    return null;
+  }
+
+  public boolean hasPath(String path) {
+    if (null == path) {
+      return false;
+    }
+
+    if (staticPaths.containsKey(path)) {
+      return true;
+    }
+
+    String[] segments = split(path);
+    for (Template template : templates) {
+      if (null != template.match(segments)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private Template templateFor(String path) {
+    for (Template template : templates) {
+      if (template.path.equals(path)) {
+        return template;
+      }
+    }
+
+    Template template = new Template(path);
+    templates.add(template);
+    return template;
+  }
+
+  private static String[] split(String path) {
+    String trimmed = path.startsWith("/") ? path.substring(1) : path;
+    return trimmed.split("/", -1);
+  }
+
+  private static final class Template {
+    private final String path;
+    // null entries are path parameters and match any non-empty segment
+    private final String[] segments;
+    // Parameter name for each null segment
+    private final String[] parameters;
+    private final Map<String, CustomerOperation> operations = new HashMap<>();
+
+    Template(String path) {
+      this.path = path;
+      this.segments = split(path);
+      this.parameters = new String[segments.length];
+      for (int i = 0; i < segments.length; i++) {
+        if (segments[i].startsWith("{") && segments[i].endsWith("}")) {
+          parameters[i] = segments[i].substring(1, segments[i].length() - 1);
+          segments[i] = null;
+        }
+      }
+    }
+
+    int parameterCount() {
+      int count = 0;
+      for (String parameter : parameters) {
+        if (null != parameter) {
+          count++;
+        }
+      }
+      return count;
+    }
+
+    // Returns the captured path parameters, or null when the path does not match
+    Map<String, String> match(String[] candidate) {
+      if (candidate.length != segments.length) {
+        return null;
+      }
+
+      for (int i = 0; i < segments.length; i++) {
+        if (null == segments[i] ? candidate[i].isEmpty() : !segments[i].equals(candidate[i])) {
+          return null;
+        }
+      }
+
+      Map<String, String> pathParameters = new HashMap<>();
+      for (int i = 0; i < parameters.length; i++) {
+        if (null != parameters[i]) {
+          pathParameters.put(parameters[i], candidate[i]);
+        }
+      }
+      return pathParameters;
+    }
+  }
+}
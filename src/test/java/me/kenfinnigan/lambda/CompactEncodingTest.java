@@ -0,0 +1,103 @@
+package me.kenfinnigan.lambda;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent.RequestContext;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent.RequestContext.Http;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.kenfinnigan.lambda.dto.SignupRequest;
+import me.kenfinnigan.lambda.dto.SignupResponse;
+import me.kenfinnigan.lambda.model.Customer;
+import me.kenfinnigan.lambda.model.CustomerTableSchema;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import jakarta.inject.Inject;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+@QuarkusTest
+@TestProfile(CompactEncodingTest.CompactProfile.class)
+@TestInstance(Lifecycle.PER_CLASS)
+public class CompactEncodingTest {
+    @Inject
+    DynamoDbClient dynamoDbClient;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    CreateCustomer createCustomer;
+
+    @BeforeAll
+    void setup() {
+        TestTables.create(dynamoDbClient);
+    }
+
+    @Test
+    void signupWritesCompactItemReadableThroughEmailIndex() throws Exception {
+        SignupRequest body = new SignupRequest();
+        body.setEmail("gary.oldman@gmail.com");
+        body.setDeviceId("compact-device");
+
+        APIGatewayV2HTTPEvent request = APIGatewayV2HTTPEvent.builder()
+                .withRequestContext(
+                        RequestContext.builder()
+                                .withHttp(
+                                        Http.builder()
+                                                .withMethod("POST")
+                                                .build())
+                                .build())
+                .withRouteKey("POST /customers")
+                .withBody(objectMapper.writeValueAsString(body))
+                .build();
+
+        APIGatewayV2HTTPResponse out = given()
+                .contentType("application/json")
+                .accept("application/json")
+                .body(request)
+                .when()
+                .post()
+                .thenReturn()
+                .getBody()
+                .as(APIGatewayV2HTTPResponse.class);
+        assertEquals(200, out.getStatusCode());
+        SignupResponse signupResponse = objectMapper.readValue(out.getBody(), SignupResponse.class);
+
+        // Stored with short names and numeric timestamps
+        Map<String, AttributeValue> item = dynamoDbClient.getItem(r -> r
+                .tableName(Customer.CUSTOMER_TABLE_NAME)
+                .key(Map.of(Customer.PARTITION_KEY, AttributeValue.fromS(signupResponse.getCustomerId())))
+                .consistentRead(true))
+                .item();
+        assertFalse(CustomerTableSchema.isLegacyItem(item));
+        assertEquals("compact-device", item.get(CustomerTableSchema.COMPACT_DEVICE_ID).s());
+        assertNotNull(item.get(CustomerTableSchema.COMPACT_CREATED_AT).n());
+
+        // Read back through customer_email_index
+        Customer customer = createCustomer.getCustomerByEmail("gary.oldman@gmail.com");
+        assertEquals(signupResponse.getCustomerId(), customer.getCustomerId());
+        assertEquals("compact-device", customer.getDeviceId());
+        assertEquals(signupResponse.getCustomerToken(), customer.getToken());
+        assertNotNull(customer.getCreatedAt());
+    }
+
+    public static class CompactProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of("customer.encoding.compact", "true");
+        }
+    }
+}
@@ -2,11 +2,11 @@ package me.kenfinnigan.lambda;
 
 import static io.restassured.RestAssured.given;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -20,16 +20,13 @@ import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import me.kenfinnigan.lambda.dto.SignupRequest;
 import me.kenfinnigan.lambda.dto.SignupResponse;
-import me.kenfinnigan.lambda.model.Customer;
+import me.kenfinnigan.lambda.ratelimit.SignupRateLimiter;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.response.Response;
 import jakarta.inject.Inject;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
-import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
-import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
-import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
-import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
 
 @QuarkusTest
 @TestInstance(Lifecycle.PER_CLASS)
@@ -40,71 +37,9 @@ public class CreateCustomerTest {
     @Inject
     ObjectMapper objectMapper;
 
-    Map<String, String> getAttributes() {
-        return Map.of(
-                Customer.PARTITION_KEY, "S",
-                "email", "S",
-                "token", "S");
-    }
-
-    GlobalSecondaryIndex[] getGlobalSecondaryIndexes() {
-        return Arrays.asList(
-                getEmailIndex(),
-                getTokenIndex()).toArray(new GlobalSecondaryIndex[2]);
-    }
-
-    GlobalSecondaryIndex getEmailIndex() {
-        return GlobalSecondaryIndex.builder()
-                .indexName(Customer.EMAIL_INDEX)
-                .keySchema(
-                        KeySchemaElement.builder()
-                                .attributeName("email")
-                                .keyType("HASH")
-                                .build())
-                .projection(p -> p.projectionType(ProjectionType.ALL))
-                .build();
-    }
-
-    GlobalSecondaryIndex getTokenIndex() {
-        return GlobalSecondaryIndex.builder()
-                .indexName(Customer.TOKEN_INDEX)
-                .keySchema(
-                        KeySchemaElement.builder()
-                                .attributeName("token")
-                                .keyType("HASH")
-                                .build())
-                .projection(p -> p.projectionType(ProjectionType.ALL))
-                .build();
-    }
-
     @BeforeAll
     void setup() {
-        if (dynamoDbClient.listTables().tableNames().contains(Customer.CUSTOMER_TABLE_NAME)) {
-            return;
-        }
-
-        CreateTableRequest.Builder createTableRequestBuilder = CreateTableRequest.builder()
-                .tableName(Customer.CUSTOMER_TABLE_NAME)
-                .keySchema(
-                        KeySchemaElement.builder()
-                                .attributeName(Customer.PARTITION_KEY)
-                                .keyType("HASH")
-                                .build())
-                .billingMode("PAY_PER_REQUEST");
-
-        Collection<AttributeDefinition> attributeDefinitions = getAttributes().entrySet().stream()
-                .map(e -> AttributeDefinition.builder()
-                        .attributeName(e.getKey())
-                        .attributeType(e.getValue())
-                        .build())
-                .toList();
-        createTableRequestBuilder.attributeDefinitions(attributeDefinitions);
-
-        if (getGlobalSecondaryIndexes() != null) {
-            createTableRequestBuilder.globalSecondaryIndexes(getGlobalSecondaryIndexes());
-        }
-
-        dynamoDbClient.createTable(createTableRequestBuilder.build());
+        TestTables.create(dynamoDbClient);
     }
 
     @Test
@@ -121,6 +56,7 @@ public class CreateCustomerTest {
                                                 .withMethod("POST")
                                                 .build())
                                 .build())
+                .withRouteKey("POST /customers")
                 .withBody(objectMapper.writeValueAsString(body))
                 .build();
 
@@ -156,6 +92,7 @@ public class CreateCustomerTest {
                                                 .withMethod("POST")
                                                 .build())
                                 .build())
+                .withRouteKey("POST /customers")
                 .withBody(objectMapper.writeValueAsString(new SignupRequest()))
                 .build();
 
@@ -187,6 +124,7 @@ public class CreateCustomerTest {
                                                 .withMethod("POST")
                                                 .build())
                                 .build())
+                .withRouteKey("POST /customers")
                 .withBody(objectMapper.writeValueAsString(new SignupRequest().setDeviceId("1234")))
                 .build();
 
@@ -218,6 +156,7 @@ public class CreateCustomerTest {
                                                 .withMethod("POST")
                                                 .build())
                                 .build())
+                .withRouteKey("POST /customers")
                 .withBody(objectMapper.writeValueAsString(new SignupRequest().setEmail("gary.cole@gmail.com")))
                 .build();
 
@@ -253,6 +192,7 @@ public class CreateCustomerTest {
                                                 .withMethod("POST")
                                                 .build())
                                 .build())
+                .withRouteKey("POST /customers")
                 .withBody(objectMapper.writeValueAsString(body))
                 .build();
 
@@ -273,4 +213,69 @@ public class CreateCustomerTest {
         assertTrue(null != out);
         assertEquals(400, out.getStatusCode());
     }
+
+    @Test
+    void failWhenDeviceRateLimited() throws Exception {
+        // Default device limit is 5 per window
+        for (int i = 0; i < 5; i++) {
+            assertNotEquals(429, signup("flood-device", null).getStatusCode());
+        }
+        assertEquals(429, signup("flood-device", null).getStatusCode());
+    }
+
+    @Test
+    void failWhenIpRateLimited() throws Exception {
+        // Default IP limit is 50 per window, rotating device IDs does not help
+        for (int i = 0; i < 50; i++) {
+            assertNotEquals(429, signup("ip-device-" + i, "203.0.113.7").getStatusCode());
+        }
+        assertEquals(429, signup("ip-device-50", "203.0.113.7").getStatusCode());
+        assertNotEquals(429, signup("ip-device-51", "203.0.113.8").getStatusCode());
+    }
+
+    @Test
+    void failWhenSharedCounterExhausted() throws Exception {
+        // Other containers have used the whole device limit, this container has not seen the device
+        long window = System.currentTimeMillis() / TimeUnit.SECONDS.toMillis(60);
+        for (long w = window; w <= window + 1; w++) {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(SignupRateLimiter.RATE_LIMIT_TABLE_NAME)
+                    .item(Map.of(
+                            SignupRateLimiter.PARTITION_KEY, AttributeValue.fromS("device#shared-device#" + w),
+                            SignupRateLimiter.HITS_ATTRIBUTE, AttributeValue.fromN("5")))
+                    .build());
+        }
+
+        assertEquals(429, signup("shared-device", null).getStatusCode());
+    }
+
+    APIGatewayV2HTTPResponse signup(String deviceId, String sourceIp) throws Exception {
+        SignupRequest body = new SignupRequest();
+        body.setEmail("gary.busey.gmail.com");
+        body.setDeviceId(deviceId);
+
+        APIGatewayV2HTTPEvent request = APIGatewayV2HTTPEvent.builder()
+                .withRequestContext(
+                        RequestContext.builder()
+                                .withHttp(
+                                        Http.builder()
+                                                .withMethod("POST")
+                                                .withSourceIp(sourceIp)
+                                                .build())
+                                .build())
+                .withRouteKey("POST /customers")
+                .withBody(objectMapper.writeValueAsString(body))
+                .build();
+
+        Response response = given()
+                .contentType("application/json")
+                .accept("application/json")
+                .body(request)
+                .when()
+                .post()
+                .thenReturn();
+
+        assertEquals(200, response.getStatusCode());
+        return response.getBody().as(APIGatewayV2HTTPResponse.class);
+    }
 }
@@ -0,0 +1,115 @@
+package me.kenfinnigan.lambda;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent.RequestContext;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent.RequestContext.Http;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.response.Response;
+
+@QuarkusTest
+public class CustomerRouterTest {
+
+    @Test
+    void failWithUnknownRoute() throws Exception {
+        APIGatewayV2HTTPEvent request = APIGatewayV2HTTPEvent.builder()
+                .withRequestContext(
+                        RequestContext.builder()
+                                .withHttp(
+                                        Http.builder()
+                                                .withMethod("GET")
+                                                .build())
+                                .build())
+                .withRouteKey("$default")
+                .withRawPath("/orders")
+                .build();
+
+        Response response = given()
+                .contentType("application/json")
+                .accept("application/json")
+                .body(request)
+                .when()
+                .post()
+                .thenReturn();
+
+        // Assert on response to APIGateway
+        assertTrue(null != response);
+        assertEquals(200, response.getStatusCode());
+
+        // Assert on response to client
+        APIGatewayV2HTTPResponse out = response.getBody().as(APIGatewayV2HTTPResponse.class);
+        assertTrue(null != out);
+        assertEquals(404, out.getStatusCode());
+    }
+
+    @Test
+    void failWithUnsupportedMethod() throws Exception {
+        APIGatewayV2HTTPEvent request = APIGatewayV2HTTPEvent.builder()
+                .withRequestContext(
+                        RequestContext.builder()
+                                .withHttp(
+                                        Http.builder()
+                                                .withMethod("DELETE")
+                                                .build())
+                                .build())
+                .withRouteKey("$default")
+                .withRawPath("/customers")
+                .build();
+
+        Response response = given()
+                .contentType("application/json")
+                .accept("application/json")
+                .body(request)
+                .when()
+                .post()
+                .thenReturn();
+
+        // Assert on response to APIGateway
+        assertTrue(null != response);
+        assertEquals(200, response.getStatusCode());
+
+        // Assert on response to client
+        APIGatewayV2HTTPResponse out = response.getBody().as(APIGatewayV2HTTPResponse.class);
+        assertTrue(null != out);
+        assertEquals(405, out.getStatusCode());
+    }
+
+    @Test
+    void stripsStageFromPath() throws Exception {
+        APIGatewayV2HTTPEvent request = APIGatewayV2HTTPEvent.builder()
+                .withRequestContext(
+                        RequestContext.builder()
+                                .withStage("prod")
+                                .withHttp(
+                                        Http.builder()
+                                                .withMethod("DELETE")
+                                                .build())
+                                .build())
+                .withRouteKey("$default")
+                .withRawPath("/prod/customers")
+                .build();
+
+        Response response = given()
+                .contentType("application/json")
+                .accept("application/json")
+                .body(request)
+                .when()
+                .post()
+                .thenReturn();
+
+        // Assert on response to APIGateway
+        assertTrue(null != response);
+        assertEquals(200, response.getStatusCode());
+
+        // Path is known once the stage is stripped, so the method is what's rejected
+        APIGatewayV2HTTPResponse out = response.getBody().as(APIGatewayV2HTTPResponse.class);
+        assertTrue(null != out);
+        assertEquals(405, out.getStatusCode());
+    }
+}
@@ -0,0 +1,198 @@
+package me.kenfinnigan.lambda;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+import me.kenfinnigan.lambda.dto.MigrationResult;
+import me.kenfinnigan.lambda.model.Customer;
+import me.kenfinnigan.lambda.model.CustomerTableSchema;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+@QuarkusTest
+@TestInstance(Lifecycle.PER_CLASS)
+public class MigrateCustomersTest {
+    @Inject
+    DynamoDbClient dynamoDbClient;
+
+    @Inject
+    MigrateCustomers migrateCustomers;
+
+    @BeforeAll
+    void setup() {
+        TestTables.create(dynamoDbClient);
+    }
+
+    @Test
+    void migratesLegacyItem() {
+        putLegacyItem("c_migrate-1");
+
+        MigrationResult result = migrateCustomers.migrate(null, null, null, null);
+        assertTrue(result.isComplete());
+
+        Map<String, AttributeValue> item = getItem("c_migrate-1");
+        assertFalse(CustomerTableSchema.isLegacyItem(item));
+        assertEquals("device-c_migrate-1", item.get(CustomerTableSchema.COMPACT_DEVICE_ID).s());
+        assertEquals("1760000000000", item.get(CustomerTableSchema.COMPACT_CREATED_AT).n());
+        assertEquals("1760000000000", item.get(CustomerTableSchema.COMPACT_UPDATED_AT).n());
+    }
+
+    @Test
+    void skipsItemChangedSinceScan() {
+        putLegacyItem("c_migrate-2");
+        Map<String, AttributeValue> scanned = getItem("c_migrate-2");
+
+        // Updated by a legacy writer after the scan
+        dynamoDbClient.updateItem(r -> r
+                .tableName(Customer.CUSTOMER_TABLE_NAME)
+                .key(Map.of(Customer.PARTITION_KEY, AttributeValue.fromS("c_migrate-2")))
+                .updateExpression("SET #updated = :updated")
+                .expressionAttributeNames(Map.of("#updated", CustomerTableSchema.LEGACY_UPDATED_AT))
+                .expressionAttributeValues(Map.of(":updated", AttributeValue.fromS(Instant.now().toString()))));
+
+        assertFalse(migrateCustomers.migrateItem(scanned));
+        assertTrue(CustomerTableSchema.isLegacyItem(getItem("c_migrate-2")));
+    }
+
+    @Test
+    void resumesFromLastEvaluatedKey() {
+        for (int i = 0; i < 3; i++) {
+            putLegacyItem("c_resume-" + i);
+        }
+
+        // Time runs out after the first item
+        MigrationResult first = migrateCustomers.migrate(null, null, null, new CountdownContext(3, Integer.MAX_VALUE));
+        assertFalse(first.isComplete());
+        assertEquals(1, first.getScanned());
+        assertNotNull(first.getLastEvaluatedKey());
+
+        MigrationResult second = migrateCustomers.handleRequest(
+                Map.of(MigrateCustomers.EXCLUSIVE_START_KEY, first.getLastEvaluatedKey()), null);
+        assertTrue(second.isComplete());
+
+        for (int i = 0; i < 3; i++) {
+            assertFalse(CustomerTableSchema.isLegacyItem(getItem("c_resume-" + i)));
+        }
+    }
+
+    @Test
+    void completesWithinShortTimeout() {
+        putLegacyItem("c_short-timeout");
+
+        // The Lambda default timeout of 3s, which is below the 30s reserve
+        MigrationResult result = migrateCustomers.migrate(null, null, null, new CountdownContext(Integer.MAX_VALUE, 3000));
+        assertTrue(result.isComplete());
+        assertFalse(CustomerTableSchema.isLegacyItem(getItem("c_short-timeout")));
+    }
+
+    @Test
+    void failsWhenNoProgressIsPossible() {
+        putLegacyItem("c_no-time");
+
+        assertThrows(IllegalStateException.class,
+                () -> migrateCustomers.migrate(null, null, null, new CountdownContext(1, Integer.MAX_VALUE)));
+    }
+
+    void putLegacyItem(String customerId) {
+        dynamoDbClient.putItem(r -> r
+                .tableName(Customer.CUSTOMER_TABLE_NAME)
+                .item(Map.of(
+                        Customer.PARTITION_KEY, AttributeValue.fromS(customerId),
+                        "email", AttributeValue.fromS(customerId + "@example.com"),
+                        "token", AttributeValue.fromS("token-" + customerId),
+                        CustomerTableSchema.LEGACY_DEVICE_ID, AttributeValue.fromS("device-" + customerId),
+                        CustomerTableSchema.LEGACY_CREATED_AT, AttributeValue.fromS("2025-10-09T08:53:20Z"),
+                        CustomerTableSchema.LEGACY_UPDATED_AT, AttributeValue.fromS("2025-10-09T08:53:20Z"))));
+    }
+
+    Map<String, AttributeValue> getItem(String customerId) {
+        return dynamoDbClient.getItem(r -> r
+                .tableName(Customer.CUSTOMER_TABLE_NAME)
+                .key(Map.of(Customer.PARTITION_KEY, AttributeValue.fromS(customerId)))
+                .consistentRead(true))
+                .item();
+    }
+
+    // Reports the given time remaining for the first calls, then none
+    static class CountdownContext implements Context {
+        private int calls;
+        private final int remainingMillis;
+
+        CountdownContext(int calls, int remainingMillis) {
+            this.calls = calls;
+            this.remainingMillis = remainingMillis;
+        }
+
+        @Override
+        public int getRemainingTimeInMillis() {
+            return calls-- > 0 ? remainingMillis : 0;
+        }
+
+        @Override
+        public String getAwsRequestId() {
+            return null;
+        }
+
+        @Override
+        public String getLogGroupName() {
+            return null;
+        }
+
+        @Override
+        public String getLogStreamName() {
+            return null;
+        }
+
+        @Override
+        public String getFunctionName() {
+            return null;
+        }
+
+        @Override
+        public String getFunctionVersion() {
+            return null;
+        }
+
+        @Override
+        public String getInvokedFunctionArn() {
+            return null;
+        }
+
+        @Override
+        public CognitoIdentity getIdentity() {
+            return null;
+        }
+
+        @Override
+        public ClientContext getClientContext() {
+            return null;
+        }
+
+        @Override
+        public int getMemoryLimitInMB() {
+            return 0;
+        }
+
+        @Override
+        public LambdaLogger getLogger() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package me.kenfinnigan.lambda;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import me.kenfinnigan.lambda.model.Customer;
+import me.kenfinnigan.lambda.ratelimit.SignupRateLimiter;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeDefinition;
+import software.amazon.awssdk.services.dynamodb.model.CreateTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndex;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.ProjectionType;
+
+// Creates the tables the functions expect, shared by every @QuarkusTest
+final class TestTables {
+    static Map<String, String> getAttributes() {
+        return Map.of(
+                Customer.PARTITION_KEY, "S",
+                "email", "S",
+                "token", "S");
+    }
+
+    static GlobalSecondaryIndex[] getGlobalSecondaryIndexes() {
+        return Arrays.asList(
+                getEmailIndex(),
+                getTokenIndex()).toArray(new GlobalSecondaryIndex[2]);
+    }
+
+    static GlobalSecondaryIndex getEmailIndex() {
+        return GlobalSecondaryIndex.builder()
+                .indexName(Customer.EMAIL_INDEX)
+                .keySchema(
+                        KeySchemaElement.builder()
+                                .attributeName("email")
+                                .keyType("HASH")
+                                .build())
+                .projection(p -> p.projectionType(ProjectionType.ALL))
+                .build();
+    }
+
+    static GlobalSecondaryIndex getTokenIndex() {
+        return GlobalSecondaryIndex.builder()
+                .indexName(Customer.TOKEN_INDEX)
+                .keySchema(
+                        KeySchemaElement.builder()
+                                .attributeName("token")
+                                .keyType("HASH")
+                                .build())
+                .projection(p -> p.projectionType(ProjectionType.ALL))
+                .build();
+    }
+
+    static void create(DynamoDbClient dynamoDbClient) {
+        if (!dynamoDbClient.listTables().tableNames().contains(SignupRateLimiter.RATE_LIMIT_TABLE_NAME)) {
+            dynamoDbClient.createTable(CreateTableRequest.builder()
+                    .tableName(SignupRateLimiter.RATE_LIMIT_TABLE_NAME)
+                    .keySchema(
+                            KeySchemaElement.builder()
+                                    .attributeName(SignupRateLimiter.PARTITION_KEY)
+                                    .keyType("HASH")
+                                    .build())
+                    .attributeDefinitions(
+                            AttributeDefinition.builder()
+                                    .attributeName(SignupRateLimiter.PARTITION_KEY)
+                                    .attributeType("S")
+                                    .build())
+                    .billingMode("PAY_PER_REQUEST")
+                    .build());
+        }
+
+        if (dynamoDbClient.listTables().tableNames().contains(Customer.CUSTOMER_TABLE_NAME)) {
+            return;
+        }
+
+        CreateTableRequest.Builder createTableRequestBuilder = CreateTableRequest.builder()
+                .tableName(Customer.CUSTOMER_TABLE_NAME)
+                .keySchema(
+                        KeySchemaElement.builder()
+                                .attributeName(Customer.PARTITION_KEY)
+                                .keyType("HASH")
+                                .build())
+                .billingMode("PAY_PER_REQUEST");
+
+        Collection<AttributeDefinition> attributeDefinitions = getAttributes().entrySet().stream()
+                .map(e -> AttributeDefinition.builder()
+                        .attributeName(e.getKey())
+                        .attributeType(e.getValue())
+                        .build())
+                .toList();
+        createTableRequestBuilder.attributeDefinitions(attributeDefinitions);
+
+        if (getGlobalSecondaryIndexes() != null) {
+            createTableRequestBuilder.globalSecondaryIndexes(getGlobalSecondaryIndexes());
+        }
+
+        dynamoDbClient.createTable(createTableRequestBuilder.build());
+    }
+
+    private TestTables() {
+    }
+}
@@ -0,0 +1,126 @@
+package me.kenfinnigan.lambda.hedge;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class HedgedQueryExecutorTest {
+    HedgedQueryExecutor executor;
+
+    @BeforeEach
+    void setup() {
+        executor = new HedgedQueryExecutor();
+        executor.enabled = true;
+        executor.percentile = 0.9;
+        executor.minDelayMillis = 5;
+        executor.maxHedgeRatio = 1.0;
+        executor.maxHedgeBurst = 10;
+        executor.minSamples = 0;
+        executor.summaryIntervalSeconds = 60;
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void hedgeWinsWhenPrimaryIsSlow() {
+        AtomicInteger calls = new AtomicInteger();
+
+        String result = executor.execute(() -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(2000);
+                return "primary";
+            }
+            return "hedge";
+        });
+
+        assertEquals("hedge", result);
+        assertEquals(1, executor.getHedgesFired());
+        assertEquals(1, executor.getHedgesWon());
+    }
+
+    @Test
+    void losingPrimaryLatencyIsRecorded() {
+        AtomicInteger calls = new AtomicInteger();
+
+        executor.execute(() -> {
+            if (calls.incrementAndGet() == 1) {
+                sleep(2000);
+            }
+            return "done";
+        });
+
+        // Both the winning hedge and the losing primary, which took at least the hedge delay
+        assertEquals(2, executor.latencies.count());
+        assertTrue(executor.latencies.percentile(1.0) >= TimeUnit.MILLISECONDS.toNanos(executor.minDelayMillis));
+    }
+
+    @Test
+    void noHedgeWhenPrimaryIsFast() {
+        assertEquals("primary", executor.execute(() -> "primary"));
+        assertEquals(0, executor.getHedgesFired());
+    }
+
+    @Test
+    void hedgesAreCappedAsFractionOfTraffic() {
+        executor.maxHedgeRatio = 0.0;
+
+        assertEquals("primary", executor.execute(() -> {
+            sleep(50);
+            return "primary";
+        }));
+        assertEquals(0, executor.getHedgesFired());
+    }
+
+    @Test
+    void unusedHedgeBudgetIsCapped() {
+        executor.maxHedgeRatio = 0.1;
+        executor.maxHedgeBurst = 1;
+
+        // Healthy traffic would have earned 10 hedges without the cap
+        for (int i = 0; i < 100; i++) {
+            executor.execute(() -> "fast");
+        }
+
+        for (int i = 0; i < 3; i++) {
+            executor.execute(() -> {
+                sleep(50);
+                return "slow";
+            });
+        }
+        assertEquals(1, executor.getHedgesFired());
+    }
+
+    @Test
+    void failsWhenEveryAttemptFails() {
+        assertThrows(IllegalArgumentException.class, () -> executor.execute(() -> {
+            sleep(50);
+            throw new IllegalArgumentException("boom");
+        }));
+    }
+
+    @Test
+    void disabledRunsInline() {
+        executor.enabled = false;
+
+        assertEquals(Thread.currentThread(), executor.execute(Thread::currentThread));
+        assertEquals(0, executor.getHedgesFired());
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package me.kenfinnigan.lambda.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import me.kenfinnigan.lambda.util.TokenUtil;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+public class CustomerTableSchemaTest {
+    CustomerTableSchema legacySchema = new CustomerTableSchema(false);
+    CustomerTableSchema compactSchema = new CustomerTableSchema(true);
+
+    @Test
+    void legacyItemsAreUnchanged() {
+        Map<String, AttributeValue> item = legacySchema.itemToMap(customer(), true);
+
+        assertTrue(CustomerTableSchema.isLegacyItem(item));
+        assertEquals("S", item.get(CustomerTableSchema.LEGACY_CREATED_AT).type().toString());
+    }
+
+    @Test
+    void compactItemsUseShortNamesAndEpochMillis() {
+        Customer customer = customer();
+        Map<String, AttributeValue> item = compactSchema.itemToMap(customer, true);
+
+        assertFalse(CustomerTableSchema.isLegacyItem(item));
+        assertEquals(customer.getDeviceId(), item.get(CustomerTableSchema.COMPACT_DEVICE_ID).s());
+        assertEquals(Long.toString(customer.getCreatedAt().toEpochMilli()),
+                item.get(CustomerTableSchema.COMPACT_CREATED_AT).n());
+    }
+
+    @Test
+    void readsLegacyAndCompactItems() {
+        Customer customer = customer();
+
+        assertSameCustomer(customer, compactSchema.mapToItem(legacySchema.itemToMap(customer, true)));
+        assertSameCustomer(customer, legacySchema.mapToItem(compactSchema.itemToMap(customer, true)));
+    }
+
+    @Test
+    void keysAreIdenticalInBothEncodings() {
+        Customer customer = customer();
+        List<String> keys = List.of(Customer.PARTITION_KEY, "email", "token");
+
+        assertEquals(legacySchema.itemToMap(customer, keys), compactSchema.itemToMap(customer, keys));
+    }
+
+    @Test
+    void compactEncodingReducesItemSize() {
+        List<Customer> corpus = corpus(1000);
+
+        long legacyBytes = 0;
+        long compactBytes = 0;
+
+        for (Customer customer : corpus) {
+            legacyBytes += itemSize(legacySchema.itemToMap(customer, true));
+            compactBytes += itemSize(compactSchema.itemToMap(customer, true));
+        }
+
+        // Items shrink by roughly a quarter, in the table and in both ALL-projection indexes
+        assertTrue(compactBytes < legacyBytes * 0.8,
+                "legacy=" + legacyBytes + " compact=" + compactBytes);
+    }
+
+    Customer customer() {
+        Customer customer = new Customer();
+        customer.setCustomerId(TokenUtil.generateCustomerId());
+        customer.setEmail("gary.sinise@gmail.com");
+        customer.setDeviceId(UUID.randomUUID().toString());
+        customer.setToken(TokenUtil.generateDeviceToken(customer.getCustomerId(), customer.getDeviceId()));
+        // Compact timestamps keep millisecond precision
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        customer.setCreatedAt(now);
+        customer.setUpdatedAt(now);
+        return customer;
+    }
+
+    List<Customer> corpus(int size) {
+        String[] names = { "gary.sinise", "gary.cole", "g.busey", "tom.hanks", "robin.wright", "sally.field" };
+        String[] domains = { "gmail.com", "outlook.com", "example.co.uk", "icloud.com" };
+        Random random = new Random(42);
+        Instant start = Instant.parse("2024-01-01T00:00:00Z");
+
+        List<Customer> customers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Customer customer = new Customer();
+            customer.setCustomerId(TokenUtil.generateCustomerId());
+            customer.setEmail(names[random.nextInt(names.length)] + i + "@" + domains[random.nextInt(domains.length)]);
+            customer.setDeviceId(UUID.randomUUID().toString());
+            customer.setToken(TokenUtil.generateDeviceToken(customer.getCustomerId(), customer.getDeviceId()));
+            Instant createdAt = start.plusNanos(random.nextLong(1_000_000_000L * 60 * 60 * 24 * 365))
+                    .truncatedTo(ChronoUnit.MICROS);
+            customer.setCreatedAt(createdAt);
+            customer.setUpdatedAt(createdAt.plusMillis(random.nextInt(1_000_000)));
+            customers.add(customer);
+        }
+        return customers;
+    }
+
+    void assertSameCustomer(Customer expected, Customer actual) {
+        assertEquals(expected.getCustomerId(), actual.getCustomerId());
+        assertEquals(expected.getEmail(), actual.getEmail());
+        assertEquals(expected.getDeviceId(), actual.getDeviceId());
+        assertEquals(expected.getToken(), actual.getToken());
+        assertEquals(expected.getCreatedAt(), actual.getCreatedAt());
+        assertEquals(expected.getUpdatedAt(), actual.getUpdatedAt());
+    }
+
+    // Item size as DynamoDB bills it: attribute name bytes plus value bytes
+    static long itemSize(Map<String, AttributeValue> item) {
+        long size = 0;
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet()) {
+            size += entry.getKey().getBytes(StandardCharsets.UTF_8).length;
+
+            AttributeValue value = entry.getValue();
+            if (null != value.s()) {
+                size += value.s().getBytes(StandardCharsets.UTF_8).length;
+            } else if (null != value.n()) {
+                size += (new BigDecimal(value.n()).stripTrailingZeros().precision() + 1) / 2 + 1;
+            } else if (null != value.b()) {
+                size += value.b().asByteArray().length;
+            } else {
+                size += 1;
+            }
+        }
+        return size;
+    }
+}
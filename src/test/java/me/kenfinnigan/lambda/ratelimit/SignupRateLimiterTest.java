@@ -0,0 +1,160 @@
+package me.kenfinnigan.lambda.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemResponse;
+
+public class SignupRateLimiterTest {
+    CountingClient client;
+    SignupRateLimiter limiter;
+
+    @BeforeEach
+    void setup() {
+        client = new CountingClient();
+        limiter = newLimiter(client);
+    }
+
+    SignupRateLimiter newLimiter(DynamoDbClient dynamoDbClient) {
+        SignupRateLimiter rateLimiter = new SignupRateLimiter();
+        rateLimiter.dynamoDbClient = dynamoDbClient;
+        rateLimiter.enabled = true;
+        rateLimiter.windowSeconds = 60;
+        rateLimiter.deviceLimit = 2;
+        rateLimiter.ipLimit = 3;
+        rateLimiter.sharedEnabled = true;
+        rateLimiter.sharedTable = SignupRateLimiter.RATE_LIMIT_TABLE_NAME;
+        rateLimiter.sharedRetrySeconds = 30;
+        rateLimiter.maxTrackedKeys = 10;
+        return rateLimiter;
+    }
+
+    @Test
+    void limitsPerIp() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquireForIp("10.0.0.1"));
+        }
+        assertFalse(limiter.tryAcquireForIp("10.0.0.1"));
+        assertTrue(limiter.tryAcquireForIp("10.0.0.2"));
+    }
+
+    @Test
+    void localRejectionSkipsSharedCounter() {
+        limiter.tryAcquireForDevice("device");
+        limiter.tryAcquireForDevice("device");
+        int calls = client.calls;
+
+        assertFalse(limiter.tryAcquireForDevice("device"));
+        assertEquals(calls, client.calls);
+    }
+
+    @Test
+    void sharedCounterRejectsAcrossContainers() {
+        // Another container has already used the whole limit
+        SignupRateLimiter other = newLimiter(client);
+        other.tryAcquireForDevice("device");
+        other.tryAcquireForDevice("device");
+
+        assertFalse(limiter.tryAcquireForDevice("device"));
+
+        // Once blocked, later rejections stay local
+        int calls = client.calls;
+        assertFalse(limiter.tryAcquireForDevice("device"));
+        assertEquals(calls, client.calls);
+    }
+
+    @Test
+    void unavailableSharedCounterFailsOpenAndBacksOff() {
+        client.unavailable = true;
+
+        assertTrue(limiter.tryAcquireForDevice("device-1"));
+        assertTrue(limiter.tryAcquireForDevice("device-2"));
+        assertEquals(1, client.calls);
+    }
+
+    @Test
+    void invalidRequestDoesNotDisableSharedCounter() {
+        client.invalid = true;
+        assertTrue(limiter.tryAcquireForDevice("device-1"));
+
+        client.invalid = false;
+        assertTrue(limiter.tryAcquireForDevice("device-2"));
+        assertEquals(2, client.calls);
+    }
+
+    @Test
+    void oversizedIdsAreHashed() {
+        String deviceId = "d".repeat(1_000_000);
+
+        assertTrue(limiter.tryAcquireForDevice(deviceId));
+        assertTrue(limiter.tryAcquireForDevice(deviceId));
+        assertFalse(limiter.tryAcquireForDevice(deviceId));
+
+        for (String key : client.counters.keySet()) {
+            assertTrue(key.length() < 100, key.length() + " characters");
+        }
+    }
+
+    @Test
+    void fullMapKeepsBlockedKeys() {
+        SignupRateLimiter other = newLimiter(client);
+        other.tryAcquireForIp("10.0.0.1");
+        other.tryAcquireForIp("10.0.0.1");
+        other.tryAcquireForIp("10.0.0.1");
+        assertFalse(limiter.tryAcquireForIp("10.0.0.1"));
+
+        // Rotating device IDs fill the device map without touching the blocked IP
+        for (int i = 0; i < 100; i++) {
+            limiter.tryAcquireForDevice("device-" + i);
+        }
+
+        int calls = client.calls;
+        assertFalse(limiter.tryAcquireForIp("10.0.0.1"));
+        assertEquals(calls, client.calls);
+    }
+
+    static class CountingClient implements DynamoDbClient {
+        final Map<String, Long> counters = new HashMap<>();
+        boolean unavailable;
+        boolean invalid;
+        int calls;
+
+        @Override
+        public UpdateItemResponse updateItem(UpdateItemRequest request) {
+            calls++;
+            if (unavailable) {
+                throw ResourceNotFoundException.builder().message("Table not found").build();
+            }
+            if (invalid) {
+                throw DynamoDbException.builder().message("Key too large").statusCode(400).build();
+            }
+
+            String key = request.key().get(SignupRateLimiter.PARTITION_KEY).s();
+            long hits = counters.merge(key, 1L, Long::sum);
+            return UpdateItemResponse.builder()
+                    .attributes(Map.of(SignupRateLimiter.HITS_ATTRIBUTE, AttributeValue.fromN(Long.toString(hits))))
+                    .build();
+        }
+
+        @Override
+        public String serviceName() {
+            return "dynamodb";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
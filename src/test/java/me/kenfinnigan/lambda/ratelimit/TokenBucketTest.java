@@ -0,0 +1,73 @@
+package me.kenfinnigan.lambda.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketTest {
+    static final long WINDOW = TimeUnit.SECONDS.toNanos(60);
+
+    @Test
+    void allowsBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 3, WINDOW, 0);
+
+        assertTrue(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0));
+        assertFalse(bucket.tryConsume(0));
+    }
+
+    @Test
+    void refillsOverTheWindow() {
+        TokenBucket bucket = new TokenBucket(3, 3, WINDOW, 0);
+        for (int i = 0; i < 3; i++) {
+            bucket.tryConsume(0);
+        }
+
+        // One token every 20 seconds
+        assertFalse(bucket.tryConsume(TimeUnit.SECONDS.toNanos(19)));
+        assertTrue(bucket.tryConsume(TimeUnit.SECONDS.toNanos(20)));
+        assertFalse(bucket.tryConsume(TimeUnit.SECONDS.toNanos(21)));
+    }
+
+    @Test
+    void rejectsWhileBlocked() {
+        TokenBucket bucket = new TokenBucket(3, 3, WINDOW, 0);
+        bucket.blockUntil(WINDOW);
+
+        assertFalse(bucket.tryConsume(WINDOW - 1));
+        assertFalse(bucket.isIdle(WINDOW - 1));
+        assertTrue(bucket.tryConsume(WINDOW));
+    }
+
+    @Test
+    void handlesNegativeNanoTime() {
+        TokenBucket bucket = new TokenBucket(3, 3, WINDOW, -WINDOW);
+
+        assertTrue(bucket.tryConsume(-WINDOW));
+        assertTrue(bucket.isIdle(0));
+    }
+
+    @Test
+    void blocksAcrossNanoTimeOverflow() {
+        long start = Long.MAX_VALUE - WINDOW / 4;
+        TokenBucket bucket = new TokenBucket(3, 3, WINDOW, start);
+        bucket.blockUntil(start + WINDOW);
+
+        assertFalse(bucket.tryConsume(start + WINDOW / 2));
+        assertTrue(bucket.tryConsume(start + WINDOW));
+    }
+
+    @Test
+    void isIdleOnlyOnceRefilled() {
+        TokenBucket bucket = new TokenBucket(3, 3, WINDOW, 0);
+        assertTrue(bucket.isIdle(0));
+
+        bucket.tryConsume(0);
+        assertFalse(bucket.isIdle(TimeUnit.SECONDS.toNanos(10)));
+        assertTrue(bucket.isIdle(TimeUnit.SECONDS.toNanos(20)));
+    }
+}
@@ -0,0 +1,41 @@
+package me.kenfinnigan.lambda.route;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// Only runs with the benchmark profile: ./mvnw test -Pbenchmark
+public class RouteTableBenchmark {
+    static final int ITERATIONS = 1_000_000;
+
+    RouteTable routes = new RouteTable(List.of(
+            RouteTableTest.SIGNUP,
+            RouteTableTest.GET_CUSTOMER,
+            RouteTableTest.UPDATE_CUSTOMER,
+            RouteTableTest.GET_DEVICES));
+
+    @Test
+    void routingOverhead() {
+        for (int round = 1; round <= 5; round++) {
+            long routeKey = nanosPerLookup("POST", "POST /customers", "/customers");
+            long template = nanosPerLookup("PATCH", "$default", "/customers/c_1");
+            System.out.printf("Round %d: routeKey lookup %dns, template match %dns%n", round, routeKey, template);
+        }
+    }
+
+    long nanosPerLookup(String method, String routeKey, String path) {
+        int matched = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            if (null != routes.resolve(method, routeKey, path)) {
+                matched++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        if (matched != ITERATIONS) {
+            throw new IllegalStateException("Route did not resolve");
+        }
+        return elapsed / ITERATIONS;
+    }
+}
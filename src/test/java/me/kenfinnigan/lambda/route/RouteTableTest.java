@@ -0,0 +1,110 @@
+package me.kenfinnigan.lambda.route;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayV2HTTPResponse;
+
+public class RouteTableTest {
+    static final CustomerOperation SIGNUP = new StubOperation("POST", "/customers");
+    static final CustomerOperation GET_CUSTOMER = new StubOperation("GET", "/customers/{customerId}");
+    static final CustomerOperation UPDATE_CUSTOMER = new StubOperation("PATCH", "/customers/{customerId}");
+    static final CustomerOperation GET_DEVICES = new StubOperation("GET", "/customers/{customerId}/devices");
+
+    RouteTable routes = new RouteTable(List.of(SIGNUP, GET_CUSTOMER, UPDATE_CUSTOMER, GET_DEVICES));
+
+    @Test
+    void resolvesByRouteKey() {
+        assertEquals(SIGNUP, routes.resolve("POST", "POST /customers", "/customers").operation());
+        assertEquals(GET_CUSTOMER, routes.resolve("GET", "GET /customers/{customerId}", "/customers/c_1").operation());
+    }
+
+    @Test
+    void resolvesByPathForCatchAllRoutes() {
+        assertEquals(SIGNUP, routes.resolve("POST", "$default", "/customers").operation());
+        assertEquals(UPDATE_CUSTOMER, routes.resolve("PATCH", "$default", "/customers/c_1").operation());
+        assertEquals(GET_DEVICES, routes.resolve("GET", null, "/customers/c_1/devices").operation());
+    }
+
+    @Test
+    void capturesPathParametersForCatchAllRoutes() {
+        RouteTable.Route route = routes.resolve("GET", "$default", "/customers/c_1/devices");
+
+        assertEquals(Map.of("customerId", "c_1"), route.pathParameters());
+        assertTrue(routes.resolve("POST", "$default", "/customers").pathParameters().isEmpty());
+    }
+
+    @Test
+    void distinguishesUnknownPathFromUnsupportedMethod() {
+        assertNull(routes.resolve("DELETE", "$default", "/customers"));
+        assertTrue(routes.hasPath("/customers"));
+
+        assertNull(routes.resolve("DELETE", "$default", "/customers/c_1"));
+        assertTrue(routes.hasPath("/customers/c_1"));
+
+        assertNull(routes.resolve("GET", "$default", "/customers//devices"));
+        assertFalse(routes.hasPath("/customers//devices"));
+        assertFalse(routes.hasPath("/orders"));
+    }
+
+    @Test
+    void overlappingPathsResolveToMostSpecificWithMethod() {
+        CustomerOperation getMe = new StubOperation("GET", "/customers/me");
+        CustomerOperation getDevice = new StubOperation("GET", "/customers/{customerId}/devices/{deviceId}");
+        CustomerOperation getMyDevice = new StubOperation("GET", "/customers/me/devices/{deviceId}");
+        CustomerOperation deleteDevice = new StubOperation("DELETE", "/customers/{customerId}/devices/{deviceId}");
+        RouteTable overlapping = new RouteTable(List.of(getDevice, UPDATE_CUSTOMER, getMyDevice, getMe, deleteDevice));
+
+        assertEquals(getMe, overlapping.resolve("GET", "$default", "/customers/me").operation());
+        assertEquals(UPDATE_CUSTOMER, overlapping.resolve("PATCH", "$default", "/customers/me").operation());
+        assertEquals(Map.of("customerId", "me"), overlapping.resolve("PATCH", "$default", "/customers/me").pathParameters());
+
+        assertEquals(getMyDevice, overlapping.resolve("GET", "$default", "/customers/me/devices/d_1").operation());
+        assertEquals(Map.of("customerId", "me", "deviceId", "d_1"),
+                overlapping.resolve("DELETE", "$default", "/customers/me/devices/d_1").pathParameters());
+
+        assertNull(overlapping.resolve("DELETE", "$default", "/customers/me"));
+        assertTrue(overlapping.hasPath("/customers/me"));
+    }
+
+    @Test
+    void rejectsDuplicateRoutes() {
+        assertThrows(IllegalStateException.class,
+                () -> new RouteTable(List.of(SIGNUP, new StubOperation("POST", "/customers"))));
+    }
+
+    static class StubOperation implements CustomerOperation {
+        private final String method;
+        private final String path;
+
+        StubOperation(String method, String path) {
+            this.method = method;
+            this.path = path;
+        }
+
+        @Override
+        public String method() {
+            return method;
+        }
+
+        @Override
+        public String path() {
+            return path;
+        }
+
+        @Override
+        public APIGatewayV2HTTPResponse handleRequest(APIGatewayV2HTTPEvent input, Context context) {
+            return APIGatewayV2HTTPResponse.builder().withStatusCode(200).build();
+        }
+    }
+}